@@ -0,0 +1,59 @@
+/**
+ * ©2024 NodeMedia.cn
+ * <p>
+ * Copyright © 2015 - 2024 NodeMedia.cn All Rights Reserved.
+ */
+
+package cn.nodemedia;
+
+/**
+ * 一次applyConfig的结果
+ */
+public final class ConfigApplyResult {
+    /**
+     * 配置没有变化
+     */
+    public static final int APPLY_PATH_NONE = 0;
+
+    /**
+     * 原地生效，如音量、滤镜
+     */
+    public static final int APPLY_PATH_IN_PLACE = 1;
+
+    /**
+     * 新参数已设置，需重新start才能生效，如码率、分辨率、profile、传输参数
+     * 当前SDK不支持会话内重建编解码器，因此不区分重建编解码器与重连
+     */
+    public static final int APPLY_PATH_RESTART = 2;
+
+    private final int path;
+    private final long durationUs;
+
+    ConfigApplyResult(int path, long durationUs) {
+        this.path = path;
+        this.durationUs = durationUs;
+    }
+
+    /**
+     * 实际采用的生效方式
+     *
+     * @return APPLY_PATH_*
+     */
+    public int getPath() {
+        return path;
+    }
+
+    /**
+     * 应用配置的耗时
+     *
+     * @return 单位微秒
+     */
+    public long getDurationUs() {
+        return durationUs;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigApplyResult{path=" + path + ", durationUs=" + durationUs + "}";
+    }
+}
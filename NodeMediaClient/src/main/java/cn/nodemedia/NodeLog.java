@@ -0,0 +1,500 @@
+/**
+ * ©2024 NodeMedia.cn
+ * <p>
+ * Copyright © 2015 - 2024 NodeMedia.cn All Rights Reserved.
+ */
+
+package cn.nodemedia;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二进制日志环形缓冲
+ * <p>
+ * 每个线程一个预分配的环形缓冲，记录为定长字段(时间、分类、格式串、两个整型参数、一个文本参数)，
+ * 记录时不做格式化，导出或写文件时才格式化。未启用的分类在记录点只有一次位判断。
+ * 格式串按String.format解释，%1$d、%2$d为整型参数，%3$s为文本参数。
+ * <p>
+ * 只记录Java层的事件回调、相机与渲染状态、配置变更，native层自身的logcat输出仍由setLogLevel控制。
+ */
+public final class NodeLog {
+    public static final int CATEGORY_EVENT = 1;
+    public static final int CATEGORY_CAMERA = 1 << 1;
+    public static final int CATEGORY_RENDER = 1 << 2;
+    public static final int CATEGORY_CONFIG = 1 << 3;
+    public static final int CATEGORY_ALL = 0xFF;
+
+    private static final int CATEGORY_COUNT = 8;
+    private static final String[] CATEGORY_NAMES = {"EVENT", "CAMERA", "RENDER", "CONFIG", "C4", "C5", "C6", "C7"};
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final long NANO_TO_WALL_MS = System.currentTimeMillis() - System.nanoTime() / 1_000_000;
+
+    /**
+     * 未写文件时保留的已退出线程缓冲个数，供dump查看，超出的按最后记录时间从旧到新释放
+     */
+    static final int MAX_DEAD_RINGS = 8;
+
+    private static volatile int categories = 0;
+    private static volatile int ringSize = 1024;
+    private static final int[] rateLimits = new int[CATEGORY_COUNT];
+    private static final List<Ring> rings = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Ring> localRing = new ThreadLocal<Ring>() {
+        @Override
+        protected Ring initialValue() {
+            prune();
+            Ring ring = new Ring(Thread.currentThread(), ringSize);
+            rings.add(ring);
+            return ring;
+        }
+    };
+
+    private static ScheduledExecutorService flusher = null;
+    private static volatile RotatingFile logFile = null;
+
+    private NodeLog() {
+    }
+
+    /**
+     * 设置启用的分类
+     *
+     * @param categories CATEGORY_* 按位组合，0为全部关闭
+     */
+    public static void setCategories(int categories) {
+        NodeLog.categories = categories;
+    }
+
+    /**
+     * 设置每个线程的缓冲区记录条数，向上取2的幂，只对之后新建缓冲的线程生效
+     *
+     * @param records 记录条数
+     */
+    public static void setRingSize(int records) {
+        if (records <= 0) {
+            throw new IllegalArgumentException("records must be positive: " + records);
+        }
+        ringSize = Integer.highestOneBit(records) == records ? records : Integer.highestOneBit(records) << 1;
+    }
+
+    /**
+     * 设置分类限速，超出部分只计数不记录，每个线程单独计算
+     *
+     * @param category 单个分类，CATEGORY_*
+     * @param maxPerSecond 每秒最多记录条数，0为不限速
+     */
+    public static void setRateLimit(int category, int maxPerSecond) {
+        if (Integer.bitCount(category) != 1 || category >= 1 << CATEGORY_COUNT) {
+            throw new IllegalArgumentException("category must be a single CATEGORY_* bit: " + category);
+        }
+        rateLimits[Integer.numberOfTrailingZeros(category)] = Math.max(0, maxPerSecond);
+    }
+
+    /**
+     * 设置日志异步写入文件，按大小滚动，滚动后的文件名依次追加.1 .2 ...
+     * 切换或关闭时会先把尚未写入的记录写入原文件
+     *
+     * @param file 文件，null为停止写入
+     * @param maxFileSize 单个文件最大字节数
+     * @param maxFiles 包含当前文件在内保留的文件个数
+     */
+    public static synchronized void setLogFile(File file, long maxFileSize, int maxFiles) {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+            flush();
+            closeLogFile();
+        }
+        if (file == null) {
+            return;
+        }
+        logFile = new RotatingFile(file, maxFileSize, Math.max(1, maxFiles));
+        for (Ring ring : rings) {
+            ring.flushed = ring.first();
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "NodeLogFlusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(NodeLog::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 格式化导出所有线程缓冲中的日志，按时间排序，可在收到错误事件后调用
+     *
+     * @param file 保存的文件，文本格式
+     * @return 导出的记录条数
+     * @throws IOException 写文件失败
+     */
+    public static int dump(File file) throws IOException {
+        List<Record> records = new ArrayList<>();
+        List<String> drops = new ArrayList<>();
+        for (Ring ring : rings) {
+            Slots slots = ring.snapshot(ring.first());
+            slots.toRecords(ring.threadName, records);
+            if (slots.rateDropped > 0) {
+                drops.add("[" + ring.threadName + "] rate limited " + slots.rateDropped + " records\n");
+            }
+        }
+        prune();
+        Collections.sort(records);
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+            for (Record record : records) {
+                w.write(record.format(sdf));
+            }
+            for (String drop : drops) {
+                w.write(drop);
+            }
+        }
+        return records.size();
+    }
+
+    /**
+     * 分类是否启用，参数需要额外计算时可先判断
+     *
+     * @param category CATEGORY_*
+     * @return 是否启用
+     */
+    public static boolean isEnabled(int category) {
+        return (categories & category) != 0;
+    }
+
+    /**
+     * 记录一条日志，分类未启用时直接返回
+     *
+     * @param category 单个分类，CATEGORY_*
+     * @param format 格式串，应为常量，%1$d、%2$d引用arg0、arg1
+     * @param arg0 整型参数
+     * @param arg1 整型参数
+     */
+    public static void log(int category, String format, long arg0, long arg1) {
+        if ((categories & category) != 0) {
+            localRing.get().put(category, format, arg0, arg1, null);
+        }
+    }
+
+    /**
+     * 记录一条日志，分类未启用时直接返回
+     *
+     * @param category 单个分类，CATEGORY_*
+     * @param format 格式串，应为常量，%1$d引用arg0，%3$s引用text
+     * @param arg0 整型参数
+     * @param text 文本参数，只保存引用，导出时才格式化
+     */
+    public static void log(int category, String format, long arg0, String text) {
+        if ((categories & category) != 0) {
+            localRing.get().put(category, format, arg0, 0, text);
+        }
+    }
+
+    static int ringCount() {
+        return rings.size();
+    }
+
+    /**
+     * 释放已退出线程的缓冲：写文件时已全部写出的直接释放，未写文件时只保留最近的MAX_DEAD_RINGS个
+     */
+    private static void prune() {
+        List<Ring> dead = new ArrayList<>();
+        for (Ring ring : rings) {
+            if (!ring.isAlive()) {
+                if (logFile != null) {
+                    if (ring.isDrained()) {
+                        rings.remove(ring);
+                    }
+                } else {
+                    dead.add(ring);
+                }
+            }
+        }
+        if (dead.size() > MAX_DEAD_RINGS) {
+            Collections.sort(dead, (a, b) -> Long.compare(a.lastTime(), b.lastTime()));
+            rings.removeAll(dead.subList(0, dead.size() - MAX_DEAD_RINGS));
+        }
+    }
+
+    private static synchronized void flush() {
+        RotatingFile out = logFile;
+        if (out == null) {
+            return;
+        }
+        List<Record> records = new ArrayList<>();
+        for (Ring ring : rings) {
+            Slots slots = ring.snapshot(ring.flushed);
+            ring.flushed = slots.end;
+            slots.toRecords(ring.threadName, records);
+        }
+        prune();
+        if (records.isEmpty()) {
+            return;
+        }
+        Collections.sort(records);
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        try {
+            for (Record record : records) {
+                out.write(record.format(sdf));
+            }
+            out.flush();
+        } catch (IOException e) {
+            closeLogFile();
+        }
+    }
+
+    private static void closeLogFile() {
+        if (logFile != null) {
+            logFile.close();
+            logFile = null;
+        }
+    }
+
+    private static final class Ring {
+        final WeakReference<Thread> thread;
+        final String threadName;
+        final int mask;
+        final long[] times;
+        final int[] cats;
+        final String[] formats;
+        final long[] args0;
+        final long[] args1;
+        final String[] texts;
+        final int[] windowCounts = new int[CATEGORY_COUNT];
+        long windowStart = 0;
+        long rateDropped = 0;
+        long head = 0;
+        long flushed = 0;
+
+        Ring(Thread thread, int capacity) {
+            this.thread = new WeakReference<>(thread);
+            this.threadName = thread.getName();
+            this.mask = capacity - 1;
+            this.times = new long[capacity];
+            this.cats = new int[capacity];
+            this.formats = new String[capacity];
+            this.args0 = new long[capacity];
+            this.args1 = new long[capacity];
+            this.texts = new String[capacity];
+        }
+
+        synchronized void put(int category, String format, long arg0, long arg1, String text) {
+            long now = System.nanoTime();
+            int index = Integer.numberOfTrailingZeros(category) & (CATEGORY_COUNT - 1);
+            int limit = rateLimits[index];
+            if (limit > 0) {
+                if (now - windowStart >= 1_000_000_000L) {
+                    windowStart = now;
+                    Arrays.fill(windowCounts, 0);
+                }
+                if (++windowCounts[index] > limit) {
+                    rateDropped++;
+                    return;
+                }
+            }
+            int i = (int) head & mask;
+            times[i] = now;
+            cats[i] = category;
+            formats[i] = format;
+            args0[i] = arg0;
+            args1[i] = arg1;
+            texts[i] = text;
+            head++;
+        }
+
+        boolean isAlive() {
+            Thread t = thread.get();
+            return t != null && t.isAlive();
+        }
+
+        synchronized boolean isDrained() {
+            return flushed == head;
+        }
+
+        synchronized long first() {
+            return Math.max(0, head - mask - 1);
+        }
+
+        synchronized long lastTime() {
+            return head == 0 ? 0 : times[(int) (head - 1) & mask];
+        }
+
+        /**
+         * 复制from之后的原始字段，被覆盖的部分跳过
+         * 数组按当前条数在锁外分配，锁内只做数组拷贝，之后新写入的记录留到下一次复制
+         */
+        Slots snapshot(long from) {
+            long available;
+            synchronized (this) {
+                available = head - Math.max(from, head - mask - 1);
+            }
+            Slots slots = new Slots((int) available);
+            synchronized (this) {
+                long start = Math.max(from, head - mask - 1);
+                int count = (int) Math.min(head - start, available);
+                int begin = (int) start & mask;
+                int tail = Math.min(count, mask + 1 - begin);
+                copySlots(slots, begin, 0, tail);
+                copySlots(slots, 0, tail, count - tail);
+                slots.count = count;
+                slots.end = start + count;
+                slots.rateDropped = rateDropped;
+            }
+            return slots;
+        }
+
+        private void copySlots(Slots slots, int src, int dst, int length) {
+            System.arraycopy(times, src, slots.times, dst, length);
+            System.arraycopy(cats, src, slots.cats, dst, length);
+            System.arraycopy(formats, src, slots.formats, dst, length);
+            System.arraycopy(args0, src, slots.args0, dst, length);
+            System.arraycopy(args1, src, slots.args1, dst, length);
+            System.arraycopy(texts, src, slots.texts, dst, length);
+        }
+    }
+
+    private static final class Slots {
+        final long[] times;
+        final int[] cats;
+        final String[] formats;
+        final long[] args0;
+        final long[] args1;
+        final String[] texts;
+        int count = 0;
+        long end = 0;
+        long rateDropped = 0;
+
+        Slots(int capacity) {
+            this.times = new long[capacity];
+            this.cats = new int[capacity];
+            this.formats = new String[capacity];
+            this.args0 = new long[capacity];
+            this.args1 = new long[capacity];
+            this.texts = new String[capacity];
+        }
+
+        void toRecords(String threadName, List<Record> out) {
+            for (int i = 0; i < count; i++) {
+                out.add(new Record(times[i], threadName, cats[i], formats[i], args0[i], args1[i], texts[i]));
+            }
+        }
+    }
+
+    private static final class Record implements Comparable<Record> {
+        final long time;
+        final String threadName;
+        final int category;
+        final String format;
+        final long arg0;
+        final long arg1;
+        final String text;
+
+        Record(long time, String threadName, int category, String format, long arg0, long arg1, String text) {
+            this.time = time;
+            this.threadName = threadName;
+            this.category = category;
+            this.format = format;
+            this.arg0 = arg0;
+            this.arg1 = arg1;
+            this.text = text;
+        }
+
+        String format(SimpleDateFormat sdf) {
+            String message;
+            try {
+                message = String.format(Locale.US, format, arg0, arg1, text);
+            } catch (RuntimeException e) {
+                message = format + " " + arg0 + " " + arg1 + " " + text;
+            }
+            return sdf.format(new Date(time / 1_000_000 + NANO_TO_WALL_MS))
+                    + " [" + threadName + "] "
+                    + CATEGORY_NAMES[Integer.numberOfTrailingZeros(category) & (CATEGORY_COUNT - 1)]
+                    + " " + message + "\n";
+        }
+
+        @Override
+        public int compareTo(Record o) {
+            return Long.compare(time, o.time);
+        }
+    }
+
+    private static final class RotatingFile {
+        final File file;
+        final long maxFileSize;
+        final int maxFiles;
+        OutputStream stream = null;
+        long size = 0;
+
+        RotatingFile(File file, long maxFileSize, int maxFiles) {
+            this.file = file;
+            this.maxFileSize = maxFileSize;
+            this.maxFiles = maxFiles;
+        }
+
+        void write(String line) throws IOException {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if (stream == null) {
+                size = file.length();
+                stream = new BufferedOutputStream(new FileOutputStream(file, true));
+            }
+            if (size > 0 && size + bytes.length > maxFileSize) {
+                rotate();
+            }
+            stream.write(bytes);
+            size += bytes.length;
+        }
+
+        void flush() throws IOException {
+            if (stream != null) {
+                stream.flush();
+            }
+        }
+
+        void close() {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                }
+                stream = null;
+            }
+        }
+
+        private void rotate() throws IOException {
+            close();
+            new File(file.getPath() + "." + (maxFiles - 1)).delete();
+            for (int i = maxFiles - 2; i >= 1; i--) {
+                new File(file.getPath() + "." + i).renameTo(new File(file.getPath() + "." + (i + 1)));
+            }
+            if (maxFiles > 1) {
+                file.renameTo(new File(file.getPath() + ".1"));
+            } else {
+                file.delete();
+            }
+            size = 0;
+            stream = new BufferedOutputStream(new FileOutputStream(file, true));
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class NodePlayer implements TextureView.SurfaceTextureListener {
     private TextureView tv = null;
     private Context ctx;
     private long id;
+    private PlayerConfig config = null;
 
     private FrameLayout.LayoutParams LP = new FrameLayout.LayoutParams(
             FrameLayout.LayoutParams.MATCH_PARENT,
@@ -101,6 +102,7 @@ public class NodePlayer implements TextureView.SurfaceTextureListener {
 
     private void onEvent(int event, String msg) {
 //        Log.d(TAG, "on Event: " + event + " Message:" + msg);
+        NodeLog.log(NodeLog.CATEGORY_EVENT, "player event %1$d %3$s", event, msg);
         if (this.onNodePlayerEventListener != null) {
             this.onNodePlayerEventListener.onEventCallback(this, event, msg);
         }
@@ -110,6 +112,63 @@ public class NodePlayer implements TextureView.SurfaceTextureListener {
 
     private native void jniFree();
 
+    /**
+     * 一次性应用配置，只设置与上一次applyConfig不同的字段，首次调用设置全部字段
+     * 与setVolume、setBufferTime等单项设置混用时，这些调用不会反映到getConfig中，
+     * 下一次applyConfig可能跳过已被单项设置修改过的字段，请只使用其中一种方式
+     *
+     * @param config 新配置
+     * @return 生效方式与耗时，APPLY_PATH_RESTART时需重新start才能生效
+     */
+    public synchronized ConfigApplyResult applyConfig(PlayerConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("config must not be null");
+        }
+        long begin = System.nanoTime();
+        PlayerConfig base = this.config != null ? this.config : PlayerConfig.DEFAULT;
+        int changes = config.diff(base);
+        applyChanges(config, this.config != null ? changes : PlayerConfig.CHANGED_ALL);
+        this.config = config;
+        NodeLog.log(NodeLog.CATEGORY_CONFIG, "player apply config changes 0x%1$x", changes, 0);
+        return new ConfigApplyResult(PlayerConfig.applyPath(changes), (System.nanoTime() - begin) / 1000);
+    }
+
+    /**
+     * 获取上一次应用的配置
+     *
+     * @return 未调用过applyConfig时为null
+     */
+    public synchronized PlayerConfig getConfig() {
+        return this.config;
+    }
+
+    private void applyChanges(PlayerConfig config, int changes) {
+        if ((changes & PlayerConfig.CHANGED_BUFFER_TIME) != 0) {
+            setBufferTime(config.getBufferTime());
+        }
+        if ((changes & PlayerConfig.CHANGED_SCALE_MODE) != 0) {
+            setScaleMode(config.getScaleMode());
+        }
+        if ((changes & PlayerConfig.CHANGED_VOLUME) != 0) {
+            setVolume(config.getVolume());
+        }
+        if ((changes & PlayerConfig.CHANGED_HW_ACCEL) != 0) {
+            setHWAccelEnable(config.isHWAccelEnable());
+        }
+        if ((changes & PlayerConfig.CHANGED_RTSP_TRANSPORT) != 0 && config.getRTSPTransport() != null) {
+            setRTSPTransport(config.getRTSPTransport());
+        }
+        if ((changes & PlayerConfig.CHANGED_HTTP_REFERER) != 0 && config.getHTTPReferer() != null) {
+            setHTTPReferer(config.getHTTPReferer());
+        }
+        if ((changes & PlayerConfig.CHANGED_HTTP_USER_AGENT) != 0 && config.getHTTPUserAgent() != null) {
+            setHTTPUserAgent(config.getHTTPUserAgent());
+        }
+        if ((changes & PlayerConfig.CHANGED_CRYPTO_KEY) != 0 && config.getCryptoKey() != null) {
+            setCryptoKey(config.getCryptoKey());
+        }
+    }
+
     /**
      * 开始播放
      *
@@ -120,6 +120,7 @@ public class NodePublisher {
     private int surfaceHeight = 0;
     private boolean isCameraOpened = false;
     private boolean isScreenCreated = false;
+    private PublisherConfig config = null;
     private final FrameLayout.LayoutParams sLayoutParams = new FrameLayout.LayoutParams(
             FrameLayout.LayoutParams.MATCH_PARENT,
             FrameLayout.LayoutParams.MATCH_PARENT,
@@ -194,6 +195,7 @@ public class NodePublisher {
                 isCameraOpened = true;
             } catch (Exception e) {
                 Log.e(TAG, "Camera open failed", e);
+                NodeLog.log(NodeLog.CATEGORY_CAMERA, "camera %1$d open failed %3$s", mCameraID, e.toString());
             }
         }, ContextCompat.getMainExecutor(this.ctx));
     }
@@ -207,6 +209,7 @@ public class NodePublisher {
                 cameraProvider.unbindAll();
             } catch (Exception e) {
                 Log.e(TAG, "Camera close failed", e);
+                NodeLog.log(NodeLog.CATEGORY_CAMERA, "camera %1$d close failed %3$s", mCameraID, e.toString());
             }
         }, ContextCompat.getMainExecutor(this.ctx));
     }
@@ -245,6 +248,7 @@ public class NodePublisher {
 
     private void onEvent(int event, String msg) {
 //        Log.d(TAG, "on Event: " + event + " Message:" + msg);
+        NodeLog.log(NodeLog.CATEGORY_EVENT, "publisher event %1$d %3$s", event, msg);
         if (this.onNodePublisherEventListener != null) {
             this.onNodePublisherEventListener.onEventCallback(this, event, msg);
         }
@@ -254,6 +258,78 @@ public class NodePublisher {
 
     private native void jniFree();
 
+    /**
+     * 一次性应用配置，只设置与上一次applyConfig不同的字段，首次调用设置全部字段
+     * 与setVideoCodecParam等单项设置混用时，这些调用不会反映到getConfig中，
+     * 下一次applyConfig可能跳过已被单项设置修改过的字段，请只使用其中一种方式
+     *
+     * @param config 新配置
+     * @return 生效方式与耗时，APPLY_PATH_RESTART时需重新start才能生效
+     */
+    public synchronized ConfigApplyResult applyConfig(PublisherConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("config must not be null");
+        }
+        long begin = System.nanoTime();
+        PublisherConfig base = this.config != null ? this.config : PublisherConfig.DEFAULT;
+        int changes = config.diff(base);
+        applyChanges(config, this.config != null ? changes : PublisherConfig.CHANGED_ALL);
+        this.config = config;
+        NodeLog.log(NodeLog.CATEGORY_CONFIG, "publisher apply config changes 0x%1$x", changes, 0);
+        return new ConfigApplyResult(PublisherConfig.applyPath(changes), (System.nanoTime() - begin) / 1000);
+    }
+
+    /**
+     * 获取上一次应用的配置
+     *
+     * @return 未调用过applyConfig时为null
+     */
+    public synchronized PublisherConfig getConfig() {
+        return this.config;
+    }
+
+    private void applyChanges(PublisherConfig config, int changes) {
+        if ((changes & (PublisherConfig.CHANGED_VIDEO_FORMAT | PublisherConfig.CHANGED_VIDEO_BITRATE)) != 0) {
+            setVideoCodecParam(config.getVideoCodec(), config.getVideoProfile(), config.getVideoWidth(),
+                    config.getVideoHeight(), config.getVideoFps(), config.getVideoBitrate());
+        }
+        if ((changes & (PublisherConfig.CHANGED_AUDIO_FORMAT | PublisherConfig.CHANGED_AUDIO_BITRATE)) != 0) {
+            setAudioCodecParam(config.getAudioCodec(), config.getAudioProfile(), config.getAudioSampleRate(),
+                    config.getAudioChannels(), config.getAudioBitrate());
+        }
+        if ((changes & PublisherConfig.CHANGED_KEY_FRAME_INTERVAL) != 0) {
+            setKeyFrameInterval(config.getKeyFrameInterval());
+        }
+        if ((changes & PublisherConfig.CHANGED_HW_ACCEL) != 0) {
+            setHWAccelEnable(config.isHWAccelEnable());
+        }
+        if ((changes & PublisherConfig.CHANGED_VOLUME) != 0) {
+            setVolume(config.getVolume());
+        }
+        if ((changes & PublisherConfig.CHANGED_DENOISE) != 0) {
+            setDenoiseEnable(config.isDenoiseEnable());
+        }
+        if ((changes & PublisherConfig.CHANGED_FRONT_MIRROR) != 0) {
+            setCameraFrontMirror(config.isCameraFrontMirror());
+        }
+        if ((changes & PublisherConfig.CHANGED_EFFECT_STYLE) != 0) {
+            setEffectStyle(config.getEffectStyle());
+        }
+        if ((changes & PublisherConfig.CHANGED_EFFECT_PARAMETER) != 0) {
+            setEffectParameter(EFFECTOR_BRIGHTNESS, config.getEffectParameter(EFFECTOR_BRIGHTNESS));
+            setEffectParameter(EFFECTOR_CONTRAST, config.getEffectParameter(EFFECTOR_CONTRAST));
+            setEffectParameter(EFFECTOR_SATURATION, config.getEffectParameter(EFFECTOR_SATURATION));
+            setEffectParameter(EFFECTOR_SHARPEN, config.getEffectParameter(EFFECTOR_SHARPEN));
+            setEffectParameter(EFFECTOR_SMOOTHSKIN, config.getEffectParameter(EFFECTOR_SMOOTHSKIN));
+        }
+        if ((changes & PublisherConfig.CHANGED_CRYPTO_KEY) != 0 && config.getCryptoKey() != null) {
+            setCryptoKey(config.getCryptoKey());
+        }
+        if ((changes & PublisherConfig.CHANGED_FLV_ID_EXT) != 0) {
+            setFlvIdExt(config.isFlvIdExt());
+        }
+    }
+
     public native void setLogLevel(int logLevel);
 
     public native void setHWAccelEnable(boolean enable);
@@ -356,6 +432,7 @@ public class NodePublisher {
         @Override
         public void onSurfaceChanged(GL10 gl10, int w, int h) {
             Log.d(TAG, "on Surface Changed " + w + "x" + h);
+            NodeLog.log(NodeLog.CATEGORY_RENDER, "surface changed %1$dx%2$d", w, h);
             surfaceWidth = w;
             surfaceHeight = h;
             onViewChange();
@@ -0,0 +1,140 @@
+/**
+ * ©2024 NodeMedia.cn
+ * <p>
+ * Copyright © 2015 - 2024 NodeMedia.cn All Rights Reserved.
+ */
+
+package cn.nodemedia;
+
+import android.os.Process;
+import android.system.Os;
+import android.system.OsConstants;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 进程内线程的CPU时间与优先级
+ * <p>
+ * 读取/proc/self/task下每个线程的stat，统计整个进程，不区分NodePlayer、NodePublisher实例。
+ * native层IO、解封装、解码、编码线程的名称不属于公开接口，可能随版本变化，需要时请通过snapshot查看；
+ * Java层创建的线程名前缀见THREAD_PREFIX_*。
+ * 不支持设置软件编解码的帧/片线程数，也不支持绑定大小核。
+ */
+public final class NodeThreadStats {
+    /**
+     * NodePublisher预览与滤镜渲染线程，由GLSurfaceView创建
+     */
+    public static final String THREAD_PREFIX_PUBLISHER_RENDER = "GLThread";
+
+    /**
+     * NodeLog写文件线程
+     */
+    public static final String THREAD_PREFIX_LOG_FLUSHER = "NodeLogFlusher";
+
+    private static final String TASK_DIR = "/proc/self/task";
+
+    private NodeThreadStats() {
+    }
+
+    public static final class ThreadCpuTime {
+        public final int tid;
+        public final String name;
+        /**
+         * 用户态与内核态累计CPU时间，单位微秒
+         */
+        public final long cpuTimeUs;
+
+        ThreadCpuTime(int tid, String name, long cpuTimeUs) {
+            this.tid = tid;
+            this.name = name;
+            this.cpuTimeUs = cpuTimeUs;
+        }
+
+        @Override
+        public String toString() {
+            return tid + " " + name + " " + cpuTimeUs + "us";
+        }
+    }
+
+    /**
+     * 获取当前进程所有线程的累计CPU时间，两次调用的差值即为区间内各线程的CPU占用
+     *
+     * @return 线程列表，读取期间已退出的线程会被忽略
+     */
+    public static List<ThreadCpuTime> snapshot() {
+        List<ThreadCpuTime> threads = new ArrayList<>();
+        File[] tasks = new File(TASK_DIR).listFiles();
+        if (tasks == null) {
+            return threads;
+        }
+        long ticksPerSecond = Os.sysconf(OsConstants._SC_CLK_TCK);
+        for (File task : tasks) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(new File(task, "stat")))) {
+                ThreadCpuTime thread = parseStat(reader.readLine(), ticksPerSecond);
+                if (thread != null) {
+                    threads.add(thread);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+        return threads;
+    }
+
+    /**
+     * 设置线程名以namePrefix开头的所有线程的优先级
+     *
+     * @param namePrefix 线程名前缀，THREAD_PREFIX_*或通过snapshot获取的线程名，不能为空
+     * @param priority android.os.Process.THREAD_PRIORITY_* 取值
+     * @return 成功设置的线程数
+     */
+    public static int setThreadPriority(String namePrefix, int priority) {
+        if (namePrefix == null || namePrefix.isEmpty()) {
+            throw new IllegalArgumentException("namePrefix must not be empty");
+        }
+        int count = 0;
+        for (ThreadCpuTime thread : snapshot()) {
+            if (!thread.name.startsWith(namePrefix)) {
+                continue;
+            }
+            try {
+                Process.setThreadPriority(thread.tid, priority);
+                count++;
+            } catch (IllegalArgumentException | SecurityException ignored) {
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 解析/proc/[pid]/task/[tid]/stat，线程名可能包含空格和括号，以最后一个')'为界
+     *
+     * @return 格式不符时为null
+     */
+    static ThreadCpuTime parseStat(String line, long ticksPerSecond) {
+        if (line == null || ticksPerSecond <= 0) {
+            return null;
+        }
+        int open = line.indexOf('(');
+        int close = line.lastIndexOf(')');
+        if (open <= 0 || close < open || close + 2 > line.length()) {
+            return null;
+        }
+        // ')'之后从第3个字段state开始，utime、stime是第14、15个字段
+        String[] fields = line.substring(close + 2).split(" ");
+        if (fields.length < 13) {
+            return null;
+        }
+        try {
+            int tid = Integer.parseInt(line.substring(0, open).trim());
+            long ticks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+            return new ThreadCpuTime(tid, line.substring(open + 1, close), ticks * 1_000_000L / ticksPerSecond);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
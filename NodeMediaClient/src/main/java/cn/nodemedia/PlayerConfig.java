@@ -0,0 +1,249 @@
+/**
+ * ©2024 NodeMedia.cn
+ * <p>
+ * Copyright © 2015 - 2024 NodeMedia.cn All Rights Reserved.
+ */
+
+package cn.nodemedia;
+
+import java.util.Objects;
+
+/**
+ * NodePlayer的不可变配置，通过{@link NodePlayer#applyConfig(PlayerConfig)}一次性生效
+ * 缩放、音量原地生效；缓存、硬件加速、RTSP传输协议、HTTP头、解密密码需重新start生效
+ */
+public final class PlayerConfig {
+    static final int CHANGED_BUFFER_TIME = 1;
+    static final int CHANGED_SCALE_MODE = 1 << 1;
+    static final int CHANGED_VOLUME = 1 << 2;
+    static final int CHANGED_HW_ACCEL = 1 << 3;
+    static final int CHANGED_RTSP_TRANSPORT = 1 << 4;
+    static final int CHANGED_HTTP_REFERER = 1 << 5;
+    static final int CHANGED_HTTP_USER_AGENT = 1 << 6;
+    static final int CHANGED_CRYPTO_KEY = 1 << 7;
+    static final int CHANGED_ALL = 0xFF;
+
+    static final int CHANGED_IN_PLACE = CHANGED_SCALE_MODE | CHANGED_VOLUME;
+    static final int CHANGED_RESTART = CHANGED_BUFFER_TIME | CHANGED_HW_ACCEL | CHANGED_RTSP_TRANSPORT
+            | CHANGED_HTTP_REFERER | CHANGED_HTTP_USER_AGENT | CHANGED_CRYPTO_KEY;
+
+    static final PlayerConfig DEFAULT = new Builder().build();
+
+    private final int bufferTime;
+    private final int scaleMode;
+    private final float volume;
+    private final boolean hwAccelEnable;
+    private final String rtspTransport;
+    private final String httpReferer;
+    private final String httpUserAgent;
+    private final String cryptoKey;
+
+    private PlayerConfig(Builder builder) {
+        this.bufferTime = builder.bufferTime;
+        this.scaleMode = builder.scaleMode;
+        this.volume = builder.volume;
+        this.hwAccelEnable = builder.hwAccelEnable;
+        this.rtspTransport = builder.rtspTransport;
+        this.httpReferer = builder.httpReferer;
+        this.httpUserAgent = builder.httpUserAgent;
+        this.cryptoKey = builder.cryptoKey;
+    }
+
+    public int getBufferTime() {
+        return bufferTime;
+    }
+
+    public int getScaleMode() {
+        return scaleMode;
+    }
+
+    public float getVolume() {
+        return volume;
+    }
+
+    public boolean isHWAccelEnable() {
+        return hwAccelEnable;
+    }
+
+    public String getRTSPTransport() {
+        return rtspTransport;
+    }
+
+    public String getHTTPReferer() {
+        return httpReferer;
+    }
+
+    public String getHTTPUserAgent() {
+        return httpUserAgent;
+    }
+
+    public String getCryptoKey() {
+        return cryptoKey;
+    }
+
+    /**
+     * 以当前配置为基础创建Builder
+     *
+     * @return Builder
+     */
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * 与上一次生效的配置比较
+     *
+     * @param old 上一次生效的配置，null表示全部变化
+     * @return CHANGED_* 按位组合
+     */
+    int diff(PlayerConfig old) {
+        if (old == null) {
+            return CHANGED_ALL;
+        }
+        int changes = 0;
+        if (bufferTime != old.bufferTime) {
+            changes |= CHANGED_BUFFER_TIME;
+        }
+        if (scaleMode != old.scaleMode) {
+            changes |= CHANGED_SCALE_MODE;
+        }
+        if (Float.compare(volume, old.volume) != 0) {
+            changes |= CHANGED_VOLUME;
+        }
+        if (hwAccelEnable != old.hwAccelEnable) {
+            changes |= CHANGED_HW_ACCEL;
+        }
+        if (!Objects.equals(rtspTransport, old.rtspTransport)) {
+            changes |= CHANGED_RTSP_TRANSPORT;
+        }
+        if (!Objects.equals(httpReferer, old.httpReferer)) {
+            changes |= CHANGED_HTTP_REFERER;
+        }
+        if (!Objects.equals(httpUserAgent, old.httpUserAgent)) {
+            changes |= CHANGED_HTTP_USER_AGENT;
+        }
+        if (!Objects.equals(cryptoKey, old.cryptoKey)) {
+            changes |= CHANGED_CRYPTO_KEY;
+        }
+        return changes;
+    }
+
+    /**
+     * 根据变化的字段选择代价最小的生效方式
+     *
+     * @param changes CHANGED_* 按位组合
+     * @return ConfigApplyResult.APPLY_PATH_*
+     */
+    static int applyPath(int changes) {
+        if ((changes & CHANGED_RESTART) != 0) {
+            return ConfigApplyResult.APPLY_PATH_RESTART;
+        }
+        if ((changes & CHANGED_IN_PLACE) != 0) {
+            return ConfigApplyResult.APPLY_PATH_IN_PLACE;
+        }
+        return ConfigApplyResult.APPLY_PATH_NONE;
+    }
+
+    private static String requireNonNull(String value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " must not be null");
+        }
+        return value;
+    }
+
+    /**
+     * 字符串参数默认为null，表示不设置，使用SDK默认值
+     */
+    public static final class Builder {
+        private int bufferTime = 1000;
+        private int scaleMode = 0;
+        private float volume = 1.0f;
+        private boolean hwAccelEnable = true;
+        private String rtspTransport = NodePlayer.RTSP_TRANSPORT_UDP;
+        private String httpReferer = null;
+        private String httpUserAgent = null;
+        private String cryptoKey = null;
+
+        public Builder() {
+        }
+
+        private Builder(PlayerConfig config) {
+            this.bufferTime = config.bufferTime;
+            this.scaleMode = config.scaleMode;
+            this.volume = config.volume;
+            this.hwAccelEnable = config.hwAccelEnable;
+            this.rtspTransport = config.rtspTransport;
+            this.httpReferer = config.httpReferer;
+            this.httpUserAgent = config.httpUserAgent;
+            this.cryptoKey = config.cryptoKey;
+        }
+
+        /**
+         * @param bufferTime 缓存时长，单位毫秒，重新start生效
+         */
+        public Builder setBufferTime(int bufferTime) {
+            this.bufferTime = bufferTime;
+            return this;
+        }
+
+        /**
+         * @param scaleMode 缩放模式，原地生效
+         */
+        public Builder setScaleMode(int scaleMode) {
+            this.scaleMode = scaleMode;
+            return this;
+        }
+
+        /**
+         * @param volume 0.0 ~~ 1.0，原地生效
+         */
+        public Builder setVolume(float volume) {
+            this.volume = volume;
+            return this;
+        }
+
+        /**
+         * @param enable 是否开启硬件加速，重新start生效
+         */
+        public Builder setHWAccelEnable(boolean enable) {
+            this.hwAccelEnable = enable;
+            return this;
+        }
+
+        /**
+         * @param rtspTransport RTSP_TRANSPORT_*，重新start生效，不能为null
+         */
+        public Builder setRTSPTransport(String rtspTransport) {
+            this.rtspTransport = requireNonNull(rtspTransport, "rtspTransport");
+            return this;
+        }
+
+        /**
+         * @param httpReferer HTTP Referer，重新start生效，不能为null
+         */
+        public Builder setHTTPReferer(String httpReferer) {
+            this.httpReferer = requireNonNull(httpReferer, "httpReferer");
+            return this;
+        }
+
+        /**
+         * @param httpUserAgent HTTP User-Agent，重新start生效，不能为null
+         */
+        public Builder setHTTPUserAgent(String httpUserAgent) {
+            this.httpUserAgent = requireNonNull(httpUserAgent, "httpUserAgent");
+            return this;
+        }
+
+        /**
+         * @param cryptoKey 16字节密码，重新start生效，不能为null
+         */
+        public Builder setCryptoKey(String cryptoKey) {
+            this.cryptoKey = requireNonNull(cryptoKey, "cryptoKey");
+            return this;
+        }
+
+        public PlayerConfig build() {
+            return new PlayerConfig(this);
+        }
+    }
+}
@@ -0,0 +1,468 @@
+/**
+ * ©2024 NodeMedia
+ * <p>
+ * Copyright © 2015 - 2024 NodeMedia.All Rights Reserved.
+ */
+
+package cn.nodemedia;
+
+import java.util.Objects;
+
+/**
+ * NodePublisher的不可变配置，通过{@link NodePublisher#applyConfig(PublisherConfig)}一次性生效
+ * 音量、镜像、滤镜原地生效；码率、编码格式、分辨率、帧率、profile、关键帧间隔、硬件加速、降噪、
+ * 加密密码、flv_extension_id需重新start生效
+ */
+public final class PublisherConfig {
+    static final int CHANGED_VIDEO_BITRATE = 1;
+    static final int CHANGED_AUDIO_BITRATE = 1 << 1;
+    static final int CHANGED_VOLUME = 1 << 2;
+    static final int CHANGED_DENOISE = 1 << 3;
+    static final int CHANGED_FRONT_MIRROR = 1 << 4;
+    static final int CHANGED_EFFECT_STYLE = 1 << 5;
+    static final int CHANGED_VIDEO_FORMAT = 1 << 6;
+    static final int CHANGED_AUDIO_FORMAT = 1 << 7;
+    static final int CHANGED_KEY_FRAME_INTERVAL = 1 << 8;
+    static final int CHANGED_HW_ACCEL = 1 << 9;
+    static final int CHANGED_CRYPTO_KEY = 1 << 10;
+    static final int CHANGED_FLV_ID_EXT = 1 << 11;
+    static final int CHANGED_EFFECT_PARAMETER = 1 << 12;
+    static final int CHANGED_ALL = 0x1FFF;
+
+    static final int CHANGED_IN_PLACE = CHANGED_VOLUME | CHANGED_FRONT_MIRROR | CHANGED_EFFECT_STYLE
+            | CHANGED_EFFECT_PARAMETER;
+    static final int CHANGED_RESTART = CHANGED_VIDEO_BITRATE | CHANGED_AUDIO_BITRATE | CHANGED_VIDEO_FORMAT
+            | CHANGED_AUDIO_FORMAT | CHANGED_KEY_FRAME_INTERVAL | CHANGED_HW_ACCEL | CHANGED_DENOISE
+            | CHANGED_CRYPTO_KEY | CHANGED_FLV_ID_EXT;
+
+    static final PublisherConfig DEFAULT = new Builder().build();
+
+    private final int videoCodec;
+    private final int videoProfile;
+    private final int videoWidth;
+    private final int videoHeight;
+    private final int videoFps;
+    private final int videoBitrate;
+    private final int keyFrameInterval;
+    private final int audioCodec;
+    private final int audioProfile;
+    private final int audioSampleRate;
+    private final int audioChannels;
+    private final int audioBitrate;
+    private final float volume;
+    private final boolean hwAccelEnable;
+    private final boolean denoiseEnable;
+    private final boolean cameraFrontMirror;
+    private final int effectStyle;
+    private final float brightness;
+    private final float contrast;
+    private final float saturation;
+    private final float sharpen;
+    private final float smoothskin;
+    private final String cryptoKey;
+    private final boolean flvIdExt;
+
+    private PublisherConfig(Builder builder) {
+        this.videoCodec = builder.videoCodec;
+        this.videoProfile = builder.videoProfile;
+        this.videoWidth = builder.videoWidth;
+        this.videoHeight = builder.videoHeight;
+        this.videoFps = builder.videoFps;
+        this.videoBitrate = builder.videoBitrate;
+        this.keyFrameInterval = builder.keyFrameInterval;
+        this.audioCodec = builder.audioCodec;
+        this.audioProfile = builder.audioProfile;
+        this.audioSampleRate = builder.audioSampleRate;
+        this.audioChannels = builder.audioChannels;
+        this.audioBitrate = builder.audioBitrate;
+        this.volume = builder.volume;
+        this.hwAccelEnable = builder.hwAccelEnable;
+        this.denoiseEnable = builder.denoiseEnable;
+        this.cameraFrontMirror = builder.cameraFrontMirror;
+        this.effectStyle = builder.effectStyle;
+        this.brightness = builder.brightness;
+        this.contrast = builder.contrast;
+        this.saturation = builder.saturation;
+        this.sharpen = builder.sharpen;
+        this.smoothskin = builder.smoothskin;
+        this.cryptoKey = builder.cryptoKey;
+        this.flvIdExt = builder.flvIdExt;
+    }
+
+    public int getVideoCodec() {
+        return videoCodec;
+    }
+
+    public int getVideoProfile() {
+        return videoProfile;
+    }
+
+    public int getVideoWidth() {
+        return videoWidth;
+    }
+
+    public int getVideoHeight() {
+        return videoHeight;
+    }
+
+    public int getVideoFps() {
+        return videoFps;
+    }
+
+    public int getVideoBitrate() {
+        return videoBitrate;
+    }
+
+    public int getKeyFrameInterval() {
+        return keyFrameInterval;
+    }
+
+    public int getAudioCodec() {
+        return audioCodec;
+    }
+
+    public int getAudioProfile() {
+        return audioProfile;
+    }
+
+    public int getAudioSampleRate() {
+        return audioSampleRate;
+    }
+
+    public int getAudioChannels() {
+        return audioChannels;
+    }
+
+    public int getAudioBitrate() {
+        return audioBitrate;
+    }
+
+    public float getVolume() {
+        return volume;
+    }
+
+    public boolean isHWAccelEnable() {
+        return hwAccelEnable;
+    }
+
+    public boolean isDenoiseEnable() {
+        return denoiseEnable;
+    }
+
+    public boolean isCameraFrontMirror() {
+        return cameraFrontMirror;
+    }
+
+    public int getEffectStyle() {
+        return effectStyle;
+    }
+
+    /**
+     * 获取特效参数
+     *
+     * @param parameter NodePublisher.EFFECTOR_BRIGHTNESS等，EFFECTOR_STYLE请使用getEffectStyle
+     * @return 参数值
+     */
+    public float getEffectParameter(String parameter) {
+        switch (parameter) {
+            case NodePublisher.EFFECTOR_BRIGHTNESS:
+                return brightness;
+            case NodePublisher.EFFECTOR_CONTRAST:
+                return contrast;
+            case NodePublisher.EFFECTOR_SATURATION:
+                return saturation;
+            case NodePublisher.EFFECTOR_SHARPEN:
+                return sharpen;
+            case NodePublisher.EFFECTOR_SMOOTHSKIN:
+                return smoothskin;
+            default:
+                throw new IllegalArgumentException("unknown effect parameter: " + parameter);
+        }
+    }
+
+    public String getCryptoKey() {
+        return cryptoKey;
+    }
+
+    public boolean isFlvIdExt() {
+        return flvIdExt;
+    }
+
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * 与上一次生效的配置比较
+     *
+     * @param old 上一次生效的配置，null表示全部变化
+     * @return CHANGED_* 按位组合
+     */
+    int diff(PublisherConfig old) {
+        if (old == null) {
+            return CHANGED_ALL;
+        }
+        int changes = 0;
+        if (videoBitrate != old.videoBitrate) {
+            changes |= CHANGED_VIDEO_BITRATE;
+        }
+        if (audioBitrate != old.audioBitrate) {
+            changes |= CHANGED_AUDIO_BITRATE;
+        }
+        if (Float.compare(volume, old.volume) != 0) {
+            changes |= CHANGED_VOLUME;
+        }
+        if (denoiseEnable != old.denoiseEnable) {
+            changes |= CHANGED_DENOISE;
+        }
+        if (cameraFrontMirror != old.cameraFrontMirror) {
+            changes |= CHANGED_FRONT_MIRROR;
+        }
+        if (effectStyle != old.effectStyle) {
+            changes |= CHANGED_EFFECT_STYLE;
+        }
+        if (videoCodec != old.videoCodec || videoProfile != old.videoProfile
+                || videoWidth != old.videoWidth || videoHeight != old.videoHeight
+                || videoFps != old.videoFps) {
+            changes |= CHANGED_VIDEO_FORMAT;
+        }
+        if (audioCodec != old.audioCodec || audioProfile != old.audioProfile
+                || audioSampleRate != old.audioSampleRate || audioChannels != old.audioChannels) {
+            changes |= CHANGED_AUDIO_FORMAT;
+        }
+        if (keyFrameInterval != old.keyFrameInterval) {
+            changes |= CHANGED_KEY_FRAME_INTERVAL;
+        }
+        if (hwAccelEnable != old.hwAccelEnable) {
+            changes |= CHANGED_HW_ACCEL;
+        }
+        if (Float.compare(brightness, old.brightness) != 0 || Float.compare(contrast, old.contrast) != 0
+                || Float.compare(saturation, old.saturation) != 0 || Float.compare(sharpen, old.sharpen) != 0
+                || Float.compare(smoothskin, old.smoothskin) != 0) {
+            changes |= CHANGED_EFFECT_PARAMETER;
+        }
+        if (!Objects.equals(cryptoKey, old.cryptoKey)) {
+            changes |= CHANGED_CRYPTO_KEY;
+        }
+        if (flvIdExt != old.flvIdExt) {
+            changes |= CHANGED_FLV_ID_EXT;
+        }
+        return changes;
+    }
+
+    /**
+     * 根据变化的字段选择代价最小的生效方式
+     *
+     * @param changes CHANGED_* 按位组合
+     * @return ConfigApplyResult.APPLY_PATH_*
+     */
+    static int applyPath(int changes) {
+        if ((changes & CHANGED_RESTART) != 0) {
+            return ConfigApplyResult.APPLY_PATH_RESTART;
+        }
+        if ((changes & CHANGED_IN_PLACE) != 0) {
+            return ConfigApplyResult.APPLY_PATH_IN_PLACE;
+        }
+        return ConfigApplyResult.APPLY_PATH_NONE;
+    }
+
+    /**
+     * 特效参数默认值：亮度0，对比度1，饱和度1，锐化0，磨皮0
+     * 加密密码默认为null，表示不设置
+     */
+    public static final class Builder {
+        private int videoCodec = NodePublisher.NMC_CODEC_ID_H264;
+        private int videoProfile = NodePublisher.NMC_PROFILE_AUTO;
+        private int videoWidth = 720;
+        private int videoHeight = 1280;
+        private int videoFps = 30;
+        private int videoBitrate = 2_000_000;
+        private int keyFrameInterval = 2;
+        private int audioCodec = NodePublisher.NMC_CODEC_ID_AAC;
+        private int audioProfile = NodePublisher.NMC_PROFILE_AUTO;
+        private int audioSampleRate = 48000;
+        private int audioChannels = 1;
+        private int audioBitrate = 64_000;
+        private float volume = 1.0f;
+        private boolean hwAccelEnable = true;
+        private boolean denoiseEnable = false;
+        private boolean cameraFrontMirror = true;
+        private int effectStyle = NodePublisher.EFFECTOR_STYLE_ID_ORIGINAL;
+        private float brightness = 0f;
+        private float contrast = 1f;
+        private float saturation = 1f;
+        private float sharpen = 0f;
+        private float smoothskin = 0f;
+        private String cryptoKey = null;
+        private boolean flvIdExt = false;
+
+        public Builder() {
+        }
+
+        private Builder(PublisherConfig config) {
+            this.videoCodec = config.videoCodec;
+            this.videoProfile = config.videoProfile;
+            this.videoWidth = config.videoWidth;
+            this.videoHeight = config.videoHeight;
+            this.videoFps = config.videoFps;
+            this.videoBitrate = config.videoBitrate;
+            this.keyFrameInterval = config.keyFrameInterval;
+            this.audioCodec = config.audioCodec;
+            this.audioProfile = config.audioProfile;
+            this.audioSampleRate = config.audioSampleRate;
+            this.audioChannels = config.audioChannels;
+            this.audioBitrate = config.audioBitrate;
+            this.volume = config.volume;
+            this.hwAccelEnable = config.hwAccelEnable;
+            this.denoiseEnable = config.denoiseEnable;
+            this.cameraFrontMirror = config.cameraFrontMirror;
+            this.effectStyle = config.effectStyle;
+            this.brightness = config.brightness;
+            this.contrast = config.contrast;
+            this.saturation = config.saturation;
+            this.sharpen = config.sharpen;
+            this.smoothskin = config.smoothskin;
+            this.cryptoKey = config.cryptoKey;
+            this.flvIdExt = config.flvIdExt;
+        }
+
+        /**
+         * 参数含义同NodePublisher.setVideoCodecParam，重新start生效
+         */
+        public Builder setVideoCodecParam(int codec, int profile, int width, int height, int fps, int bitrate) {
+            this.videoCodec = codec;
+            this.videoProfile = profile;
+            this.videoWidth = width;
+            this.videoHeight = height;
+            this.videoFps = fps;
+            this.videoBitrate = bitrate;
+            return this;
+        }
+
+        /**
+         * @param bitrate 视频码率，重新start生效
+         */
+        public Builder setVideoBitrate(int bitrate) {
+            this.videoBitrate = bitrate;
+            return this;
+        }
+
+        /**
+         * @param keyFrameInterval 关键帧间隔，单位秒，重新start生效
+         */
+        public Builder setKeyFrameInterval(int keyFrameInterval) {
+            this.keyFrameInterval = keyFrameInterval;
+            return this;
+        }
+
+        /**
+         * 参数含义同NodePublisher.setAudioCodecParam，重新start生效
+         */
+        public Builder setAudioCodecParam(int codec, int profile, int sampleRate, int channels, int bitrate) {
+            this.audioCodec = codec;
+            this.audioProfile = profile;
+            this.audioSampleRate = sampleRate;
+            this.audioChannels = channels;
+            this.audioBitrate = bitrate;
+            return this;
+        }
+
+        /**
+         * @param bitrate 音频码率，重新start生效
+         */
+        public Builder setAudioBitrate(int bitrate) {
+            this.audioBitrate = bitrate;
+            return this;
+        }
+
+        /**
+         * @param volume 0.0 ~~ 1.0，原地生效
+         */
+        public Builder setVolume(float volume) {
+            this.volume = volume;
+            return this;
+        }
+
+        /**
+         * @param enable 是否开启硬件加速，重新start生效
+         */
+        public Builder setHWAccelEnable(boolean enable) {
+            this.hwAccelEnable = enable;
+            return this;
+        }
+
+        /**
+         * @param enable 是否开启降噪，重新start生效
+         */
+        public Builder setDenoiseEnable(boolean enable) {
+            this.denoiseEnable = enable;
+            return this;
+        }
+
+        /**
+         * @param mirror 前置摄像头是否镜像，原地生效
+         */
+        public Builder setCameraFrontMirror(boolean mirror) {
+            this.cameraFrontMirror = mirror;
+            return this;
+        }
+
+        /**
+         * @param style EFFECTOR_STYLE_ID_*，原地生效
+         */
+        public Builder setEffectStyle(int style) {
+            this.effectStyle = style;
+            return this;
+        }
+
+        /**
+         * @param parameter NodePublisher.EFFECTOR_BRIGHTNESS等，EFFECTOR_STYLE请使用setEffectStyle
+         * @param value 参数值，原地生效
+         */
+        public Builder setEffectParameter(String parameter, float value) {
+            switch (parameter) {
+                case NodePublisher.EFFECTOR_BRIGHTNESS:
+                    this.brightness = value;
+                    break;
+                case NodePublisher.EFFECTOR_CONTRAST:
+                    this.contrast = value;
+                    break;
+                case NodePublisher.EFFECTOR_SATURATION:
+                    this.saturation = value;
+                    break;
+                case NodePublisher.EFFECTOR_SHARPEN:
+                    this.sharpen = value;
+                    break;
+                case NodePublisher.EFFECTOR_SMOOTHSKIN:
+                    this.smoothskin = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown effect parameter: " + parameter);
+            }
+            return this;
+        }
+
+        /**
+         * @param cryptoKey 16字节密码，重新start生效，不能为null
+         */
+        public Builder setCryptoKey(String cryptoKey) {
+            if (cryptoKey == null) {
+                throw new IllegalArgumentException("cryptoKey must not be null");
+            }
+            this.cryptoKey = cryptoKey;
+            return this;
+        }
+
+        /**
+         * @param idExt 是否使用flv_extension_id，重新start生效
+         */
+        public Builder setFlvIdExt(boolean idExt) {
+            this.flvIdExt = idExt;
+            return this;
+        }
+
+        public PublisherConfig build() {
+            return new PublisherConfig(this);
+        }
+    }
+}
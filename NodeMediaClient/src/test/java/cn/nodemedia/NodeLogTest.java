@@ -0,0 +1,139 @@
+package cn.nodemedia;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class NodeLogTest {
+    @After
+    public void tearDown() {
+        NodeLog.setCategories(0);
+        NodeLog.setRateLimit(NodeLog.CATEGORY_EVENT, 0);
+        NodeLog.setLogFile(null, 0, 0);
+    }
+
+    private static String dumpOnNewThread(Runnable body) throws Exception {
+        Thread t = new Thread(body, "NodeLogTest");
+        t.start();
+        t.join();
+        File file = File.createTempFile("nodelog", ".txt");
+        file.deleteOnExit();
+        NodeLog.dump(file);
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void disabledCategoryRecordsNothing() throws Exception {
+        NodeLog.setCategories(NodeLog.CATEGORY_CAMERA);
+        String out = dumpOnNewThread(() -> NodeLog.log(NodeLog.CATEGORY_EVENT, "disabled %1$d", 1, 2));
+        assertFalse(out.contains("disabled"));
+    }
+
+    @Test
+    public void formatsLazilyOnDump() throws Exception {
+        NodeLog.setCategories(NodeLog.CATEGORY_ALL);
+        String out = dumpOnNewThread(() -> {
+            NodeLog.log(NodeLog.CATEGORY_RENDER, "size %1$dx%2$d", 720, 1280);
+            NodeLog.log(NodeLog.CATEGORY_EVENT, "event %1$d %3$s", 2001, "connected");
+        });
+        assertTrue(out.contains("[NodeLogTest] RENDER size 720x1280"));
+        assertTrue(out.contains("[NodeLogTest] EVENT event 2001 connected"));
+        assertTrue(out.indexOf("size 720x1280") < out.indexOf("event 2001"));
+    }
+
+    @Test
+    public void rateLimitDropsAndCounts() throws Exception {
+        NodeLog.setCategories(NodeLog.CATEGORY_EVENT);
+        NodeLog.setRateLimit(NodeLog.CATEGORY_EVENT, 3);
+        String out = dumpOnNewThread(() -> {
+            for (int i = 0; i < 10; i++) {
+                NodeLog.log(NodeLog.CATEGORY_EVENT, "limited %1$d", i, 0);
+            }
+        });
+        assertTrue(out.contains("limited 2"));
+        assertFalse(out.contains("limited 3"));
+        assertTrue(out.contains("rate limited 7 records"));
+    }
+
+    @Test
+    public void ringKeepsNewestRecords() throws Exception {
+        NodeLog.setCategories(NodeLog.CATEGORY_CONFIG);
+        NodeLog.setRingSize(4);
+        try {
+            String out = dumpOnNewThread(() -> {
+                for (int i = 0; i < 6; i++) {
+                    NodeLog.log(NodeLog.CATEGORY_CONFIG, "ring %1$d", i, 0);
+                }
+            });
+            assertFalse(out.contains("ring 1\n"));
+            assertTrue(out.contains("ring 2\n"));
+            assertTrue(out.contains("ring 5\n"));
+        } finally {
+            NodeLog.setRingSize(1024);
+        }
+    }
+
+    @Test
+    public void flushesAndRotatesOnClose() throws Exception {
+        File dir = Files.createTempDirectory("nodelog").toFile();
+        File file = new File(dir, "node.log");
+        NodeLog.setCategories(NodeLog.CATEGORY_EVENT);
+        NodeLog.setLogFile(file, 200, 2);
+        Thread t = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                NodeLog.log(NodeLog.CATEGORY_EVENT, "flush %1$d", i, 0);
+            }
+            NodeLog.log(NodeLog.CATEGORY_EVENT, "TAIL %1$d", 42, 0);
+        });
+        t.start();
+        t.join();
+        NodeLog.setLogFile(null, 0, 0);
+        assertTrue(new File(dir, "node.log.1").exists());
+        assertFalse(new File(dir, "node.log.2").exists());
+        String last = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(last.contains("TAIL 42"));
+    }
+
+    @Test
+    public void rotatesByEncodedBytes() throws Exception {
+        File dir = Files.createTempDirectory("nodelog").toFile();
+        File file = new File(dir, "node.log");
+        NodeLog.setCategories(NodeLog.CATEGORY_EVENT);
+        NodeLog.setLogFile(file, 300, 3);
+        Thread t = new Thread(() -> {
+            for (int i = 0; i < 6; i++) {
+                NodeLog.log(NodeLog.CATEGORY_EVENT, "事件 %1$d %3$s", i, "推流连接成功推流连接成功");
+            }
+        }, "推流线程");
+        t.start();
+        t.join();
+        NodeLog.setLogFile(null, 0, 0);
+        assertTrue(file.length() <= 300);
+        assertTrue(new File(dir, "node.log.1").length() <= 300);
+    }
+
+    @Test
+    public void deadThreadRingsAreReleased() throws Exception {
+        NodeLog.setCategories(NodeLog.CATEGORY_EVENT);
+        for (int i = 0; i < 100; i++) {
+            Thread t = new Thread(() -> NodeLog.log(NodeLog.CATEGORY_EVENT, "short %1$d", 1, 0));
+            t.start();
+            t.join();
+        }
+        Thread t = new Thread(() -> NodeLog.log(NodeLog.CATEGORY_EVENT, "last %1$d", 1, 0));
+        t.start();
+        t.join();
+        assertTrue(NodeLog.ringCount() <= NodeLog.MAX_DEAD_RINGS + 2);
+        File file = File.createTempFile("nodelog", ".txt");
+        file.deleteOnExit();
+        NodeLog.dump(file);
+        assertTrue(NodeLog.ringCount() <= NodeLog.MAX_DEAD_RINGS + 1);
+        String out = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(out.contains("last 1"));
+    }
+}
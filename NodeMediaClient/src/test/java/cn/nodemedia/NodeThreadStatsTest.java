@@ -0,0 +1,39 @@
+package cn.nodemedia;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NodeThreadStatsTest {
+    @Test
+    public void parsesCpuTime() {
+        String line = "12345 (HwDecoder) S 1000 1000 0 0 -1 4194368 100 0 0 0 250 50 0 0 10 -10 40 0 300";
+        NodeThreadStats.ThreadCpuTime thread = NodeThreadStats.parseStat(line, 100);
+        assertEquals(12345, thread.tid);
+        assertEquals("HwDecoder", thread.name);
+        assertEquals(3_000_000L, thread.cpuTimeUs);
+    }
+
+    @Test
+    public void parsesNameWithSpacesAndParens() {
+        String line = "77 (dec (1) x) R 1 1 0 0 -1 0 0 0 0 0 7 3 0 0 20 0 1 0 1";
+        NodeThreadStats.ThreadCpuTime thread = NodeThreadStats.parseStat(line, 100);
+        assertEquals(77, thread.tid);
+        assertEquals("dec (1) x", thread.name);
+        assertEquals(100_000L, thread.cpuTimeUs);
+    }
+
+    @Test
+    public void rejectsMalformedLines() {
+        assertNull(NodeThreadStats.parseStat(null, 100));
+        assertNull(NodeThreadStats.parseStat("12 (t) S 1 2", 100));
+        assertNull(NodeThreadStats.parseStat("no parens here", 100));
+        assertNull(NodeThreadStats.parseStat("12 (t)", 100));
+        assertNull(NodeThreadStats.parseStat("12 (t) ", 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPrefixIsRejected() {
+        NodeThreadStats.setThreadPriority("", 0);
+    }
+}
@@ -0,0 +1,66 @@
+package cn.nodemedia;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PlayerConfigTest {
+    @Test
+    public void diffAgainstSelfIsEmpty() {
+        PlayerConfig config = new PlayerConfig.Builder().setBufferTime(500).build();
+        assertEquals(0, config.diff(config.buildUpon().build()));
+        assertEquals(PlayerConfig.CHANGED_ALL, config.diff(null));
+    }
+
+    @Test
+    public void diffReportsEachField() {
+        PlayerConfig base = PlayerConfig.DEFAULT;
+        assertEquals(PlayerConfig.CHANGED_BUFFER_TIME, base.buildUpon().setBufferTime(300).build().diff(base));
+        assertEquals(PlayerConfig.CHANGED_SCALE_MODE, base.buildUpon().setScaleMode(2).build().diff(base));
+        assertEquals(PlayerConfig.CHANGED_VOLUME, base.buildUpon().setVolume(0.5f).build().diff(base));
+        assertEquals(PlayerConfig.CHANGED_HW_ACCEL, base.buildUpon().setHWAccelEnable(false).build().diff(base));
+        assertEquals(PlayerConfig.CHANGED_RTSP_TRANSPORT,
+                base.buildUpon().setRTSPTransport(NodePlayer.RTSP_TRANSPORT_TCP).build().diff(base));
+        assertEquals(PlayerConfig.CHANGED_HTTP_REFERER, base.buildUpon().setHTTPReferer("a").build().diff(base));
+        assertEquals(PlayerConfig.CHANGED_HTTP_USER_AGENT, base.buildUpon().setHTTPUserAgent("b").build().diff(base));
+        assertEquals(PlayerConfig.CHANGED_CRYPTO_KEY, base.buildUpon().setCryptoKey("0123456789abcdef").build().diff(base));
+    }
+
+    @Test
+    public void buildUponRoundTrips() {
+        PlayerConfig config = new PlayerConfig.Builder()
+                .setBufferTime(200)
+                .setScaleMode(1)
+                .setVolume(0.3f)
+                .setHWAccelEnable(false)
+                .setRTSPTransport(NodePlayer.RTSP_TRANSPORT_TCP)
+                .setHTTPReferer("referer")
+                .setHTTPUserAgent("agent")
+                .setCryptoKey("0123456789abcdef")
+                .build();
+        PlayerConfig copy = config.buildUpon().build();
+        assertNotSame(config, copy);
+        assertEquals(0, copy.diff(config));
+        assertEquals(200, copy.getBufferTime());
+        assertEquals("agent", copy.getHTTPUserAgent());
+    }
+
+    @Test
+    public void applyPathPicksCheapest() {
+        PlayerConfig base = PlayerConfig.DEFAULT;
+        assertEquals(ConfigApplyResult.APPLY_PATH_NONE, PlayerConfig.applyPath(0));
+        assertEquals(ConfigApplyResult.APPLY_PATH_IN_PLACE,
+                PlayerConfig.applyPath(base.buildUpon().setVolume(0f).setScaleMode(1).build().diff(base)));
+        assertEquals(ConfigApplyResult.APPLY_PATH_RESTART,
+                PlayerConfig.applyPath(base.buildUpon().setVolume(0f).setBufferTime(100).build().diff(base)));
+        assertEquals(ConfigApplyResult.APPLY_PATH_RESTART,
+                PlayerConfig.applyPath(base.buildUpon().setHWAccelEnable(false).build().diff(base)));
+        assertEquals(ConfigApplyResult.APPLY_PATH_RESTART,
+                PlayerConfig.applyPath(base.buildUpon().setHTTPReferer("r").build().diff(base)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullStringIsRejected() {
+        new PlayerConfig.Builder().setHTTPReferer("r").build().buildUpon().setHTTPReferer(null);
+    }
+}
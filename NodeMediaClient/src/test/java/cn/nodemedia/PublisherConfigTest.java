@@ -0,0 +1,95 @@
+package cn.nodemedia;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PublisherConfigTest {
+    @Test
+    public void diffAgainstSelfIsEmpty() {
+        PublisherConfig config = new PublisherConfig.Builder().setVideoBitrate(1_000_000).build();
+        assertEquals(0, config.diff(config.buildUpon().build()));
+        assertEquals(PublisherConfig.CHANGED_ALL, config.diff(null));
+    }
+
+    @Test
+    public void bitrateIsSeparateFromVideoFormat() {
+        PublisherConfig base = PublisherConfig.DEFAULT;
+        assertEquals(PublisherConfig.CHANGED_VIDEO_BITRATE,
+                base.buildUpon().setVideoBitrate(500_000).build().diff(base));
+        assertEquals(PublisherConfig.CHANGED_VIDEO_FORMAT | PublisherConfig.CHANGED_VIDEO_BITRATE,
+                base.buildUpon().setVideoCodecParam(NodePublisher.NMC_CODEC_ID_H265, NodePublisher.NMC_PROFILE_AUTO,
+                        480, 854, 30, 1_000_000).build().diff(base));
+        assertEquals(PublisherConfig.CHANGED_AUDIO_BITRATE,
+                base.buildUpon().setAudioBitrate(32_000).build().diff(base));
+    }
+
+    @Test
+    public void effectParametersAreDiffed() {
+        PublisherConfig base = PublisherConfig.DEFAULT;
+        PublisherConfig config = base.buildUpon()
+                .setEffectParameter(NodePublisher.EFFECTOR_SMOOTHSKIN, 0.6f)
+                .build();
+        assertEquals(PublisherConfig.CHANGED_EFFECT_PARAMETER, config.diff(base));
+        assertEquals(0.6f, config.getEffectParameter(NodePublisher.EFFECTOR_SMOOTHSKIN), 0f);
+        assertEquals(PublisherConfig.CHANGED_EFFECT_STYLE,
+                base.buildUpon().setEffectStyle(NodePublisher.EFFECTOR_STYLE_ID_COOL).build().diff(base));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownEffectParameterIsRejected() {
+        new PublisherConfig.Builder().setEffectParameter(NodePublisher.EFFECTOR_STYLE, 1f);
+    }
+
+    @Test
+    public void buildUponRoundTrips() {
+        PublisherConfig config = new PublisherConfig.Builder()
+                .setVideoCodecParam(NodePublisher.NMC_CODEC_ID_H265, NodePublisher.NMC_PROFILE_H265_MAIN, 1080, 1920, 25, 4_000_000)
+                .setAudioCodecParam(NodePublisher.NMC_CODEC_ID_OPUS, NodePublisher.NMC_PROFILE_AUTO, 48000, 2, 96_000)
+                .setKeyFrameInterval(1)
+                .setVolume(0.8f)
+                .setHWAccelEnable(false)
+                .setDenoiseEnable(true)
+                .setCameraFrontMirror(false)
+                .setEffectStyle(NodePublisher.EFFECTOR_STYLE_ID_FILM)
+                .setEffectParameter(NodePublisher.EFFECTOR_BRIGHTNESS, 0.1f)
+                .setEffectParameter(NodePublisher.EFFECTOR_CONTRAST, 1.2f)
+                .setEffectParameter(NodePublisher.EFFECTOR_SATURATION, 0.9f)
+                .setEffectParameter(NodePublisher.EFFECTOR_SHARPEN, 0.3f)
+                .setCryptoKey("0123456789abcdef")
+                .setFlvIdExt(true)
+                .build();
+        PublisherConfig copy = config.buildUpon().build();
+        assertNotSame(config, copy);
+        assertEquals(0, copy.diff(config));
+        assertEquals(1920, copy.getVideoHeight());
+        assertEquals(1.2f, copy.getEffectParameter(NodePublisher.EFFECTOR_CONTRAST), 0f);
+    }
+
+    @Test
+    public void applyPathPicksCheapest() {
+        PublisherConfig base = PublisherConfig.DEFAULT;
+        assertEquals(ConfigApplyResult.APPLY_PATH_NONE, PublisherConfig.applyPath(base.diff(base)));
+        assertEquals(ConfigApplyResult.APPLY_PATH_IN_PLACE, PublisherConfig.applyPath(base.buildUpon()
+                .setVolume(0.5f)
+                .setCameraFrontMirror(false)
+                .setEffectStyle(NodePublisher.EFFECTOR_STYLE_ID_COOL)
+                .setEffectParameter(NodePublisher.EFFECTOR_SHARPEN, 0.5f)
+                .build().diff(base)));
+        assertEquals(ConfigApplyResult.APPLY_PATH_RESTART, PublisherConfig.applyPath(base.buildUpon()
+                .setVideoBitrate(800_000)
+                .build().diff(base)));
+        assertEquals(ConfigApplyResult.APPLY_PATH_RESTART, PublisherConfig.applyPath(base.buildUpon()
+                .setVideoCodecParam(NodePublisher.NMC_CODEC_ID_H264, NodePublisher.NMC_PROFILE_H264_HIGH, 720, 1280, 30, 2_000_000)
+                .build().diff(base)));
+        assertEquals(ConfigApplyResult.APPLY_PATH_RESTART, PublisherConfig.applyPath(base.buildUpon()
+                .setVolume(0.5f)
+                .setFlvIdExt(true)
+                .build().diff(base)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullCryptoKeyIsRejected() {
+        new PublisherConfig.Builder().setCryptoKey(null);
+    }
+}